@@ -10,9 +10,12 @@ import eu.cloudnetservice.driver.service.ServiceInfoSnapshot;
 import eu.decentsoftware.holograms.api.DHAPI;
 import eu.decentsoftware.holograms.api.DecentHologramsAPI;
 import net.minegate.plugin.miniGameStatistic.api.CloudNetAPI;
+import net.minegate.plugin.miniGameStatistic.command.ExportStatsCommand;
 import net.minegate.plugin.miniGameStatistic.command.GameEndCommand;
 import net.minegate.plugin.miniGameStatistic.command.SaveScoreboardCommand;
 import net.minegate.plugin.miniGameStatistic.database.DatabaseManager;
+import net.minegate.plugin.miniGameStatistic.database.LocalBufferDrainer;
+import net.minegate.plugin.miniGameStatistic.database.LocalRepository;
 import net.minegate.plugin.miniGameStatistic.listener.GameEndListener;
 import net.minegate.plugin.miniGameStatistic.model.GameStatistic;
 import net.minegate.plugin.miniGameStatistic.model.PlayerMatchStatistic;
@@ -22,7 +25,10 @@ import org.bukkit.Location;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitTask;
 
+import java.io.IOException;
+import java.sql.SQLNonTransientConnectionException;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -36,6 +42,8 @@ public final class MiniGameStatistic extends JavaPlugin {
     private int teleportDelay;
     private GameEndListener gameEndListener;
     private ScoreboardTracker scoreboardTracker;
+    private LocalRepository localRepository;
+    private BukkitTask drainTask;
 
     @Override
     public void onEnable() {
@@ -55,6 +63,10 @@ public final class MiniGameStatistic extends JavaPlugin {
                 gameEndListener = new GameEndListener(this);
                 getServer().getPluginManager().registerEvents(gameEndListener, this);
                 getCommand("gameend").setExecutor(new GameEndCommand(this));
+                getCommand("exportstats").setExecutor((sender, command, label, args) -> {
+                    sender.sendMessage("\u00a7c/exportstats is only available on LOBBY mode servers.");
+                    return true;
+                });
 
                 // Initialize scoreboard tracker
                 scoreboardTracker = new ScoreboardTracker();
@@ -64,7 +76,9 @@ public final class MiniGameStatistic extends JavaPlugin {
                 }
             } else if ("LOBBY".equals(mode)) {
                 initializeDatabase();
+                initializeLocalStorage();
                 registerChannelMessageListener();
+                getCommand("exportstats").setExecutor(new ExportStatsCommand(this));
             }
         } catch (Exception e) {
             getLogger().severe("Failed to initialize: " + e.getMessage());
@@ -75,7 +89,14 @@ public final class MiniGameStatistic extends JavaPlugin {
 
     @Override
     public void onDisable() {
+        if (drainTask != null) {
+            drainTask.cancel();
+        }
         DatabaseManager.getInstance().close();
+        if (localRepository != null) {
+            // Any save or drain still running now fails with an IOException and is logged
+            localRepository.close();
+        }
         getLogger().info("MiniGameStatistic plugin disabled");
     }
 
@@ -93,6 +114,86 @@ public final class MiniGameStatistic extends JavaPlugin {
         }
     }
 
+    // ----------------------------------------------------------------
+    //  Local storage (embedded primary store / external DB buffer)
+    // ----------------------------------------------------------------
+
+    private void initializeLocalStorage() {
+        ConfigurationSection section = getConfig().getConfigurationSection("local-storage");
+        if (section == null || !section.getBoolean("enabled", true)) return;
+
+        try {
+            long segmentSize = section.getLong("segment-size-mb", 16) * 1024 * 1024;
+            localRepository = new LocalRepository(getDataFolder().toPath().resolve("local"), segmentSize, getLogger());
+        } catch (Exception e) {
+            getLogger().severe("[LocalStorage] Failed to open: " + e.getMessage());
+            e.printStackTrace();
+            return;
+        }
+
+        // Drain whenever an external database is configured, even if it was down at startup
+        if (isExternalDatabaseConfigured()) {
+            LocalBufferDrainer.Target target = statistic -> {
+                if (!DatabaseManager.getInstance().isEnabled()) {
+                    throw new SQLNonTransientConnectionException("External database is not connected", "08003");
+                }
+                DatabaseManager.getInstance().getRepository().saveStatistic(statistic);
+            };
+            LocalBufferDrainer drainer = new LocalBufferDrainer(localRepository, target,
+                    section.getInt("drain-batch-size", 100), section.getInt("drain-max-attempts", 5), getLogger());
+            long interval = Math.max(1, section.getInt("drain-interval", 60)) * 20L;
+            drainTask = Bukkit.getScheduler().runTaskTimerAsynchronously(this, drainer, interval, interval);
+        }
+    }
+
+    /**
+     * Whether an external database is configured ({@code database.enabled}), regardless of
+     * whether it is currently reachable. Decides between buffering and primary local storage.
+     */
+    public boolean isExternalDatabaseConfigured() {
+        return getConfig().getBoolean("database.enabled", false);
+    }
+
+    /** Save a received match to the external database, falling back to local storage. Runs async. */
+    private void persistStatistic(GameStatistic statistic) {
+        if (isExternalDatabaseConfigured()) {
+            if (DatabaseManager.getInstance().isEnabled()) {
+                try {
+                    DatabaseManager.getInstance().getRepository().saveStatistic(statistic);
+                    getLogger().info("[Database] Saved match " + statistic.getMatchId());
+                    return;
+                } catch (Exception e) {
+                    getLogger().severe("[Database] Failed to save: " + e.getMessage());
+                    if (localRepository == null) {
+                        e.printStackTrace();
+                    }
+                }
+            } else {
+                getLogger().warning("[Database] Not connected, cannot save match " + statistic.getMatchId());
+            }
+            if (localRepository == null) return;
+            try {
+                localRepository.bufferStatistic(statistic);
+                getLogger().info("[LocalStorage] Buffered match " + statistic.getMatchId() + " for later drain");
+            } catch (IOException e) {
+                getLogger().severe("[LocalStorage] Failed to buffer: " + e.getMessage());
+                e.printStackTrace();
+            }
+        } else if (localRepository != null) {
+            try {
+                localRepository.saveStatistic(statistic);
+                getLogger().info("[LocalStorage] Saved match " + statistic.getMatchId());
+            } catch (IOException e) {
+                getLogger().severe("[LocalStorage] Failed to save: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+
+    public LocalRepository getLocalRepository() {
+        return localRepository;
+    }
+
     // ----------------------------------------------------------------
     //  Game End (called on GAME servers)
     // ----------------------------------------------------------------
@@ -230,16 +331,8 @@ public final class MiniGameStatistic extends JavaPlugin {
     private void onStatisticsReceived(GameStatistic statistic) {
         getLogger().info("Received statistics: " + statistic);
 
-        if (DatabaseManager.getInstance().isEnabled()) {
-            Bukkit.getScheduler().runTaskAsynchronously(this, () -> {
-                try {
-                    DatabaseManager.getInstance().getRepository().saveStatistic(statistic);
-                    getLogger().info("[Database] Saved match " + statistic.getMatchId());
-                } catch (Exception e) {
-                    getLogger().severe("[Database] Failed to save: " + e.getMessage());
-                    e.printStackTrace();
-                }
-            });
+        if (isExternalDatabaseConfigured() || localRepository != null) {
+            Bukkit.getScheduler().runTaskAsynchronously(this, () -> persistStatistic(statistic));
         }
 
         displayStatisticsHolograms(statistic);
@@ -0,0 +1,99 @@
+package net.minegate.plugin.miniGameStatistic.command;
+
+import net.minegate.plugin.miniGameStatistic.MiniGameStatistic;
+import net.minegate.plugin.miniGameStatistic.database.LocalRepository;
+import net.minegate.plugin.miniGameStatistic.database.export.ExportFormat;
+import net.minegate.plugin.miniGameStatistic.database.export.StatisticExportTask;
+import org.bukkit.Bukkit;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.configuration.ConfigurationSection;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Command to dump all stored matches to a file in the plugin's {@code exports/} folder.
+ *
+ * <p>Usage:
+ *   /exportstats [csv|ndjson]
+ *
+ * <p>The export runs asynchronously on its own database connection and streams rows
+ * through a server-side cursor, so it neither blocks the lobby nor grows with table size.
+ * When the external database is disabled, the embedded local storage is exported instead.
+ * Only one export can run at a time.
+ */
+public class ExportStatsCommand implements CommandExecutor {
+    private final MiniGameStatistic plugin;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    public ExportStatsCommand(MiniGameStatistic plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public boolean onCommand(@NotNull CommandSender sender, @NotNull Command command,
+                             @NotNull String label, @NotNull String[] args) {
+        if (!sender.hasPermission("minigamestatistic.exportstats")) {
+            sender.sendMessage("\u00a7cYou don't have permission to use this command.");
+            return true;
+        }
+
+        ConfigurationSection dbSection = plugin.getConfig().getConfigurationSection("database");
+        boolean external = plugin.isExternalDatabaseConfigured() && dbSection != null;
+        LocalRepository localRepository = plugin.getLocalRepository();
+        if (!external && localRepository == null) {
+            sender.sendMessage("\u00a7cNeither the database nor local storage is enabled.");
+            return true;
+        }
+
+        ExportFormat format = args.length > 0 ? ExportFormat.parse(args[0]) : ExportFormat.CSV;
+        if (format == null) {
+            sender.sendMessage("\u00a7cUsage: /exportstats [csv|ndjson]");
+            return true;
+        }
+
+        if (!running.compareAndSet(false, true)) {
+            sender.sendMessage("\u00a7cAn export is already running.");
+            return true;
+        }
+
+        boolean gzip = plugin.getConfig().getBoolean("export.gzip", true);
+        int fetchSize = plugin.getConfig().getInt("export.fetch-size", 1000);
+        int progressInterval = plugin.getConfig().getInt("export.progress-interval", 10000);
+        String fileName = "matches_" + System.currentTimeMillis() + "." + format.getExtension() + (gzip ? ".gz" : "");
+        Path target = plugin.getDataFolder().toPath().resolve("exports").resolve(fileName);
+
+        StatisticExportTask task = external
+                ? new StatisticExportTask(dbSection, format, target, gzip, fetchSize, progressInterval)
+                : new StatisticExportTask(localRepository, format, target, gzip, progressInterval);
+        sender.sendMessage("\u00a7aExporting matches to \u00a7f" + target.getFileName() + "\u00a7a...");
+        if (external && localRepository != null && localRepository.getPendingCount() > 0) {
+            sender.sendMessage("\u00a7e" + localRepository.getPendingCount()
+                    + " buffered matches have not been drained into the database yet and are not included.");
+        }
+
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            long start = System.currentTimeMillis();
+            try {
+                long total = task.run(count -> reply(sender, "\u00a77Export progress: \u00a7f" + count + "\u00a77 matches"));
+                long seconds = (System.currentTimeMillis() - start) / 1000;
+                plugin.getLogger().info("[Export] Wrote " + total + " matches to " + target + " in " + seconds + "s");
+                reply(sender, "\u00a7aExport finished: \u00a7f" + total + "\u00a7a matches in \u00a7f" + seconds + "s");
+            } catch (Exception e) {
+                plugin.getLogger().severe("[Export] Failed: " + e.getMessage());
+                e.printStackTrace();
+                reply(sender, "\u00a7cExport failed: " + e.getMessage());
+            } finally {
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    private void reply(CommandSender sender, String message) {
+        Bukkit.getScheduler().runTask(plugin, () -> sender.sendMessage(message));
+    }
+}
@@ -0,0 +1,135 @@
+package net.minegate.plugin.miniGameStatistic.database;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoServerException;
+import com.mongodb.MongoSocketException;
+import com.mongodb.MongoTimeoutException;
+import net.minegate.plugin.miniGameStatistic.model.GameStatistic;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Moves matches buffered in a {@link LocalRepository} into the external database in batches.
+ *
+ * <p>Per-match failures never block the rest of the buffer:
+ * <ul>
+ *   <li>A duplicate-key error means the match is already stored externally (e.g. the original
+ *       save committed before its error reached the lobby), so it is marked drained.</li>
+ *   <li>A connection error stops the batch; the database is down and nothing is counted.</li>
+ *   <li>Any other error counts as a failed attempt. After {@code maxAttempts} the match is
+ *       {@link LocalRepository#park parked} until the next restart.</li>
+ * </ul>
+ */
+public class LocalBufferDrainer implements Runnable {
+
+    /** Destination of drained matches, normally the external repository. */
+    @FunctionalInterface
+    public interface Target {
+        void saveStatistic(GameStatistic statistic) throws Exception;
+    }
+
+    private final LocalRepository localRepository;
+    private final Target target;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Logger logger;
+    private final Map<String, Integer> attempts = new HashMap<>();
+
+    public LocalBufferDrainer(LocalRepository localRepository, Target target, int batchSize, int maxAttempts, Logger logger) {
+        this.localRepository = localRepository;
+        this.target = target;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.logger = logger;
+    }
+
+    @Override
+    public synchronized void run() {
+        try {
+            drainBatch();
+        } catch (IOException e) {
+            logger.severe("[LocalStorage] Drain failed: " + e.getMessage());
+        }
+    }
+
+    /** @return the number of matches marked drained in this batch */
+    synchronized int drainBatch() throws IOException {
+        List<GameStatistic> batch = localRepository.getPendingMatches(batchSize);
+        if (batch.isEmpty()) return 0;
+
+        List<String> drained = new ArrayList<>();
+        try {
+            for (GameStatistic statistic : batch) {
+                String matchId = statistic.getMatchId();
+                try {
+                    target.saveStatistic(statistic);
+                    drained.add(matchId);
+                } catch (Exception e) {
+                    if (isDuplicateKey(e)) {
+                        drained.add(matchId);
+                    } else if (isConnectionFailure(e)) {
+                        logger.warning("[LocalStorage] Drain stopped, external database unavailable: " + e.getMessage());
+                        break;
+                    } else {
+                        onFailedAttempt(matchId, e);
+                    }
+                }
+            }
+        } finally {
+            localRepository.markDrained(drained);
+            drained.forEach(attempts::remove);
+        }
+
+        if (!drained.isEmpty()) {
+            logger.info("[LocalStorage] Drained " + drained.size() + " matches ("
+                    + localRepository.getPendingCount() + " still pending)");
+        }
+        return drained.size();
+    }
+
+    private void onFailedAttempt(String matchId, Exception e) {
+        int count = attempts.merge(matchId, 1, Integer::sum);
+        if (count < maxAttempts) {
+            logger.warning("[LocalStorage] Failed to drain match " + matchId
+                    + " (attempt " + count + "/" + maxAttempts + "): " + e.getMessage());
+            return;
+        }
+        attempts.remove(matchId);
+        localRepository.park(matchId);
+        logger.severe("[LocalStorage] Parked match " + matchId + " after " + count
+                + " failed attempts; it stays in local storage and is retried after restart: " + e.getMessage());
+    }
+
+    static boolean isDuplicateKey(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLException sql) {
+                // PostgreSQL unique_violation / MySQL & MariaDB ER_DUP_ENTRY
+                if ("23505".equals(sql.getSQLState()) || sql.getErrorCode() == 1062) return true;
+            } else if (t instanceof MongoServerException mongo) {
+                if (ErrorCategory.fromErrorCode(mongo.getCode()) == ErrorCategory.DUPLICATE_KEY) return true;
+            }
+        }
+        return false;
+    }
+
+    static boolean isConnectionFailure(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLTransientConnectionException || t instanceof SQLNonTransientConnectionException
+                    || t instanceof MongoSocketException || t instanceof MongoTimeoutException) {
+                return true;
+            }
+            if (t instanceof SQLException sql && sql.getSQLState() != null && sql.getSQLState().startsWith("08")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
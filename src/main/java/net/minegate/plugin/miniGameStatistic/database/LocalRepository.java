@@ -0,0 +1,496 @@
+package net.minegate.plugin.miniGameStatistic.database;
+
+import net.minegate.plugin.miniGameStatistic.model.GameStatistic;
+import net.minegate.plugin.miniGameStatistic.model.PlayerMatchStatistic;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Embedded, zero-dependency match store: an append-only segment log on local disk with an
+ * in-memory index by {@code matchId} and player UUID.
+ *
+ * <p>Used in two ways:
+ * <ul>
+ *   <li>{@link #saveStatistic} — primary store when no external database is configured.</li>
+ *   <li>{@link #bufferStatistic} — local buffer when saving to the external database fails.
+ *       Buffered matches are returned by {@link #getPendingMatches} until they are
+ *       {@link #markDrained drained} into the external database.</li>
+ * </ul>
+ *
+ * <p>Record layout: {@code [int length][int crc32][payload]}. A torn or corrupt tail left by
+ * a crash is truncated when the log is reopened. Old segments whose matches have all been
+ * drained are deleted.
+ */
+public class LocalRepository implements AutoCloseable {
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int HEADER_SIZE = 8;
+
+    private static final byte TYPE_STORED = 1;
+    private static final byte TYPE_BUFFERED = 2;
+    private static final byte TYPE_DRAINED = 3;
+
+    /** Position and record type of a match record in the log. */
+    private record Location(int segment, long offset, byte type) {}
+
+    private final Path directory;
+    private final long segmentSize;
+    private final Logger logger;
+
+    private final TreeMap<Integer, FileChannel> segments = new TreeMap<>();
+    /** Records in each segment that are still needed (stored, or buffered and not yet drained). */
+    private final Map<Integer, Integer> liveRecords = new HashMap<>();
+    private final Map<String, Location> matchIndex = new LinkedHashMap<>();
+    /** Match ids per segment, so deleting a segment does not scan the whole index. */
+    private final Map<Integer, List<String>> segmentMatches = new HashMap<>();
+    private final Map<String, Set<String>> playerIndex = new HashMap<>();
+    private final Set<String> pending = new LinkedHashSet<>();
+    /** Pending matches skipped by {@link #getPendingMatches} until restart. Not persisted. */
+    private final Set<String> parked = new HashSet<>();
+    /** Every stat field name seen in the log, for export pivot columns. */
+    private final Set<String> fieldNames = new TreeSet<>();
+
+    private int activeSegment;
+    private boolean closed;
+
+    public LocalRepository(Path directory, long segmentSize, Logger logger) throws IOException {
+        this.directory = directory;
+        this.segmentSize = Math.max(64 * 1024, segmentSize);
+        this.logger = logger;
+
+        Files.createDirectories(directory);
+        try {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : files.toList()) {
+                    String name = file.getFileName().toString();
+                    if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX)) continue;
+                    try {
+                        int id = Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+                        segments.put(id, FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE));
+                    } catch (NumberFormatException e) {
+                        logger.warning("[LocalStorage] Ignoring unrecognized file " + name);
+                    }
+                }
+            }
+            for (Map.Entry<Integer, FileChannel> entry : segments.entrySet()) {
+                replay(entry.getKey(), entry.getValue());
+            }
+
+            activeSegment = segments.isEmpty() ? 1 : segments.lastKey();
+            if (segments.isEmpty()) {
+                openSegment(activeSegment);
+            }
+            deleteDeadSegments();
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+        logger.info("[LocalStorage] Loaded " + matchIndex.size() + " matches ("
+                + pending.size() + " pending drain) from " + segments.size() + " segment(s)");
+    }
+
+    // ----------------------------------------------------------------
+    //  Writes
+    // ----------------------------------------------------------------
+
+    /** Store a match permanently (primary store mode). */
+    public synchronized void saveStatistic(GameStatistic statistic) throws IOException {
+        ensureOpen();
+        appendMatch(TYPE_STORED, statistic);
+    }
+
+    /** Store a match until it has been drained into the external database. */
+    public synchronized void bufferStatistic(GameStatistic statistic) throws IOException {
+        ensureOpen();
+        appendMatch(TYPE_BUFFERED, statistic);
+    }
+
+    /** Record that the given buffered matches are now persisted in the external database. */
+    public synchronized void markDrained(List<String> matchIds) throws IOException {
+        ensureOpen();
+        List<String> drained = new ArrayList<>();
+        for (String matchId : matchIds) {
+            if (pending.contains(matchId)) drained.add(matchId);
+        }
+        if (drained.isEmpty()) return;
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(TYPE_DRAINED);
+        out.writeInt(drained.size());
+        for (String matchId : drained) {
+            out.writeUTF(matchId);
+        }
+        append(bytes.toByteArray());
+
+        for (String matchId : drained) {
+            onDrained(matchId);
+        }
+        deleteDeadSegments();
+    }
+
+    private void appendMatch(byte type, GameStatistic statistic) throws IOException {
+        if (matchIndex.containsKey(statistic.getMatchId())) return;
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(type);
+        writeStatistic(out, statistic);
+        long offset = append(bytes.toByteArray());
+        index(new Location(activeSegment, offset, type), statistic);
+    }
+
+    /** Append a record to the active segment, returning its offset there. */
+    private long append(byte[] payload) throws IOException {
+        FileChannel channel = segments.get(activeSegment);
+        if (channel.size() > 0 && channel.size() + HEADER_SIZE + payload.length > segmentSize) {
+            channel = openSegment(activeSegment + 1);
+            activeSegment++;
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + payload.length);
+        buffer.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+
+        long offset = channel.size();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, offset + buffer.position());
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            discardTornRecord(channel, offset);
+            throw e;
+        }
+        return offset;
+    }
+
+    /**
+     * Remove a partially written record so later appends do not follow it. Otherwise replay
+     * would stop at its bad checksum and drop every record written after it.
+     */
+    private void discardTornRecord(FileChannel channel, long offset) {
+        if (!channel.isOpen()) {
+            // Channel closed underneath us (interrupt); replay will trim the torn tail on reopen
+            return;
+        }
+        try {
+            channel.truncate(offset);
+        } catch (IOException truncateFailed) {
+            // Leave the torn bytes at the end of this segment and continue in a fresh one
+            logger.warning("[LocalStorage] Could not truncate torn record in segment " + activeSegment
+                    + ", starting a new segment: " + truncateFailed.getMessage());
+            try {
+                openSegment(activeSegment + 1);
+                activeSegment++;
+            } catch (IOException openFailed) {
+                logger.severe("[LocalStorage] Could not start a new segment: " + openFailed.getMessage());
+            }
+        }
+    }
+
+    private FileChannel openSegment(int id) throws IOException {
+        FileChannel channel = FileChannel.open(segmentPath(id), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segments.put(id, channel);
+        return channel;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Local storage is closed");
+        }
+    }
+
+    private Path segmentPath(int id) {
+        return directory.resolve(SEGMENT_PREFIX + String.format("%06d", id) + SEGMENT_SUFFIX);
+    }
+
+    // ----------------------------------------------------------------
+    //  Reads
+    // ----------------------------------------------------------------
+
+    public synchronized GameStatistic findByMatchId(String matchId) throws IOException {
+        ensureOpen();
+        Location location = matchIndex.get(matchId);
+        return location != null ? readMatch(location) : null;
+    }
+
+    /** All stored matches the given player took part in, oldest first. */
+    public synchronized List<GameStatistic> findByPlayer(String playerUuid) throws IOException {
+        ensureOpen();
+        Set<String> matchIds = playerIndex.getOrDefault(playerUuid, Collections.emptySet());
+        List<GameStatistic> result = new ArrayList<>(matchIds.size());
+        for (String matchId : matchIds) {
+            result.add(readMatch(matchIndex.get(matchId)));
+        }
+        return result;
+    }
+
+    /** Up to {@code limit} buffered matches not yet drained and not parked, oldest first. */
+    public synchronized List<GameStatistic> getPendingMatches(int limit) throws IOException {
+        ensureOpen();
+        List<GameStatistic> result = new ArrayList<>(Math.min(limit, pending.size()));
+        Iterator<String> it = pending.iterator();
+        while (it.hasNext() && result.size() < limit) {
+            String matchId = it.next();
+            if (!parked.contains(matchId)) {
+                result.add(readMatch(matchIndex.get(matchId)));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Stop offering a pending match to {@link #getPendingMatches} so it cannot hold up the rest
+     * of the buffer. The match stays in the log and is offered again after a restart.
+     */
+    public synchronized void park(String matchId) {
+        if (pending.contains(matchId)) {
+            parked.add(matchId);
+        }
+    }
+
+    /** Pending matches, including parked ones. */
+    public synchronized int getPendingCount() { return pending.size(); }
+
+    public synchronized int getParkedCount() { return parked.size(); }
+
+    public synchronized int getMatchCount() { return matchIndex.size(); }
+
+    /**
+     * Ids of all matches this store is responsible for (stored, or buffered and not yet
+     * drained), oldest first. Matches already drained into the external database are excluded.
+     */
+    public synchronized List<String> getMatchIds() {
+        List<String> ids = new ArrayList<>(matchIndex.size());
+        for (Map.Entry<String, Location> entry : matchIndex.entrySet()) {
+            if (entry.getValue().type() == TYPE_STORED || pending.contains(entry.getKey())) {
+                ids.add(entry.getKey());
+            }
+        }
+        return ids;
+    }
+
+    /** All stat field names seen in the log, sorted. */
+    public synchronized List<String> getFieldNames() {
+        return new ArrayList<>(fieldNames);
+    }
+
+    /** Field names and match ids captured together, so an export header covers every exported row. */
+    public record ExportSnapshot(List<String> fieldNames, List<String> matchIds) {}
+
+    public synchronized ExportSnapshot snapshotForExport() {
+        return new ExportSnapshot(getFieldNames(), getMatchIds());
+    }
+
+    private GameStatistic readMatch(Location location) throws IOException {
+        FileChannel channel = segments.get(location.segment());
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        readFully(channel, header, location.offset());
+        ByteBuffer payload = ByteBuffer.allocate(header.flip().getInt());
+        readFully(channel, payload, location.offset() + HEADER_SIZE);
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload.array()));
+        in.readByte(); // record type
+        return readStatistic(in);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of segment");
+            }
+        }
+    }
+
+    // ----------------------------------------------------------------
+    //  Recovery & index
+    // ----------------------------------------------------------------
+
+    private void replay(int segment, FileChannel channel) throws IOException {
+        liveRecords.putIfAbsent(segment, 0);
+        long size = channel.size();
+        long offset = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (offset + HEADER_SIZE <= size) {
+            header.clear();
+            readFully(channel, header, offset);
+            header.flip();
+            int length = header.getInt();
+            int checksum = header.getInt();
+            if (length <= 0 || offset + HEADER_SIZE + length > size) break;
+
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            readFully(channel, payload, offset + HEADER_SIZE);
+            CRC32 crc = new CRC32();
+            crc.update(payload.array());
+            if ((int) crc.getValue() != checksum) break;
+
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload.array()));
+            byte type = in.readByte();
+            if (type == TYPE_DRAINED) {
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    onDrained(in.readUTF());
+                }
+            } else {
+                index(new Location(segment, offset, type), readStatistic(in));
+            }
+            offset += HEADER_SIZE + length;
+        }
+
+        if (offset < size) {
+            logger.warning("[LocalStorage] Truncating corrupt tail of segment " + segment
+                    + " at offset " + offset + " (" + (size - offset) + " bytes)");
+            channel.truncate(offset);
+        }
+    }
+
+    private void index(Location location, GameStatistic statistic) {
+        matchIndex.put(statistic.getMatchId(), location);
+        segmentMatches.computeIfAbsent(location.segment(), k -> new ArrayList<>()).add(statistic.getMatchId());
+        for (PlayerMatchStatistic p : statistic.getPlayerStatistics()) {
+            if (p.getPlayerUUID() != null && !p.getPlayerUUID().isEmpty()) {
+                playerIndex.computeIfAbsent(p.getPlayerUUID(), k -> new LinkedHashSet<>()).add(statistic.getMatchId());
+            }
+        }
+        for (PlayerMatchStatistic p : statistic.getPlayerStatistics()) {
+            fieldNames.addAll(p.getStats().keySet());
+        }
+        if (location.type() == TYPE_BUFFERED) {
+            pending.add(statistic.getMatchId());
+        }
+        liveRecords.merge(location.segment(), 1, Integer::sum);
+    }
+
+    private void onDrained(String matchId) {
+        if (!pending.remove(matchId)) return;
+        parked.remove(matchId);
+        Location location = matchIndex.get(matchId);
+        liveRecords.merge(location.segment(), -1, Integer::sum);
+    }
+
+    /**
+     * Delete the oldest segments while every match in them has been drained. Only a prefix is
+     * removed so that drain markers are never dropped before the records they refer to.
+     */
+    private void deleteDeadSegments() throws IOException {
+        while (segments.size() > 1) {
+            int oldest = segments.firstKey();
+            if (oldest == activeSegment || liveRecords.getOrDefault(oldest, 0) > 0) return;
+
+            // Unindex using each match's own players, read back before the segment is closed
+            for (String matchId : segmentMatches.getOrDefault(oldest, List.of())) {
+                GameStatistic statistic = readMatch(matchIndex.remove(matchId));
+                for (PlayerMatchStatistic p : statistic.getPlayerStatistics()) {
+                    unindexPlayer(p.getPlayerUUID(), matchId);
+                }
+            }
+            segmentMatches.remove(oldest);
+            liveRecords.remove(oldest);
+            segments.remove(oldest).close();
+            Files.deleteIfExists(segmentPath(oldest));
+        }
+    }
+
+    private void unindexPlayer(String playerUuid, String matchId) {
+        Set<String> matchIds = playerIndex.get(playerUuid);
+        if (matchIds != null && matchIds.remove(matchId) && matchIds.isEmpty()) {
+            playerIndex.remove(playerUuid);
+        }
+    }
+
+    // ----------------------------------------------------------------
+    //  Serialization
+    // ----------------------------------------------------------------
+
+    private static void writeStatistic(DataOutputStream out, GameStatistic statistic) throws IOException {
+        out.writeUTF(statistic.getMatchId());
+        writeNullable(out, statistic.getGameName());
+        writeNullable(out, statistic.getWinner());
+        out.writeInt(statistic.getPlayerCount());
+        out.writeLong(statistic.getTimestamp());
+
+        List<PlayerMatchStatistic> players = statistic.getPlayerStatistics();
+        out.writeInt(players.size());
+        for (PlayerMatchStatistic p : players) {
+            writeNullable(out, p.getPlayerName());
+            writeNullable(out, p.getPlayerUUID());
+            Map<String, Integer> stats = p.getStats();
+            out.writeInt(stats.size());
+            for (Map.Entry<String, Integer> entry : stats.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeInt(entry.getValue());
+            }
+        }
+    }
+
+    private static GameStatistic readStatistic(DataInputStream in) throws IOException {
+        String matchId = in.readUTF();
+        String gameName = readNullable(in);
+        String winner = readNullable(in);
+        int playerCount = in.readInt();
+        long timestamp = in.readLong();
+
+        int playerStatsCount = in.readInt();
+        List<PlayerMatchStatistic> players = new ArrayList<>(playerStatsCount);
+        for (int i = 0; i < playerStatsCount; i++) {
+            String pName = readNullable(in);
+            String pUuid = readNullable(in);
+            int fieldCount = in.readInt();
+            Map<String, Integer> stats = new LinkedHashMap<>();
+            for (int j = 0; j < fieldCount; j++) {
+                stats.put(in.readUTF(), in.readInt());
+            }
+            players.add(new PlayerMatchStatistic(pName, pUuid, stats));
+        }
+        return new GameStatistic(matchId, gameName, winner, playerCount, timestamp, players);
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) out.writeUTF(value);
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        for (FileChannel channel : segments.values()) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+        }
+        segments.clear();
+    }
+}
@@ -0,0 +1,30 @@
+package net.minegate.plugin.miniGameStatistic.database.export;
+
+/**
+ * Output formats supported by the bulk match export.
+ */
+public enum ExportFormat {
+    /** One row per player per match, stat fields pivoted into columns. */
+    CSV("csv"),
+    /** One JSON object per match per line, players nested (same shape as the MongoDB document). */
+    NDJSON("ndjson");
+
+    private final String extension;
+
+    ExportFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() { return extension; }
+
+    /** Parse a format name case-insensitively, returning null if unknown. */
+    public static ExportFormat parse(String name) {
+        if (name == null) return null;
+        for (ExportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name) || format.extension.equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,53 @@
+package net.minegate.plugin.miniGameStatistic.database.export;
+
+import net.minegate.plugin.miniGameStatistic.database.LocalRepository;
+import net.minegate.plugin.miniGameStatistic.model.GameStatistic;
+
+import java.util.List;
+
+/**
+ * Exporter over the embedded {@link LocalRepository}, used when it is the primary store.
+ *
+ * <p>The field names and match ids are captured in one {@link LocalRepository#snapshotForExport
+ * snapshot}, so matches saved during the export are left out rather than written with missing
+ * columns. Matches are then read back one at a time, so memory use is bounded by a single match
+ * plus the id list. Matches deleted by segment cleanup while the export runs are skipped.
+ */
+public class LocalStatisticExporter implements StatisticExporter {
+    private final LocalRepository repository;
+    private LocalRepository.ExportSnapshot snapshot;
+
+    public LocalStatisticExporter(LocalRepository repository) {
+        this.repository = repository;
+    }
+
+    private LocalRepository.ExportSnapshot snapshot() {
+        if (snapshot == null) {
+            snapshot = repository.snapshotForExport();
+        }
+        return snapshot;
+    }
+
+    @Override
+    public List<String> getFieldNames() {
+        return snapshot().fieldNames();
+    }
+
+    @Override
+    public long streamMatches(MatchSink sink) throws Exception {
+        long matches = 0;
+        for (String matchId : snapshot().matchIds()) {
+            GameStatistic statistic = repository.findByMatchId(matchId);
+            if (statistic != null) {
+                sink.accept(statistic);
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    /** The repository is owned by the plugin and stays open. */
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,160 @@
+package net.minegate.plugin.miniGameStatistic.database.export;
+
+import net.minegate.plugin.miniGameStatistic.model.GameStatistic;
+import net.minegate.plugin.miniGameStatistic.model.PlayerMatchStatistic;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes streamed matches to a file as CSV or NDJSON, optionally gzip-compressed.
+ *
+ * <p>Output goes through a {@link FileChannel} behind a fixed-size buffer, so nothing
+ * beyond the current match is held in memory.
+ */
+public class MatchExportWriter implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ExportFormat format;
+    private final Writer writer;
+    private List<String> fieldNames = List.of();
+
+    public MatchExportWriter(Path target, ExportFormat format, boolean gzip) throws IOException {
+        this.format = format;
+        FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        OutputStream out = Channels.newOutputStream(channel);
+        try {
+            out = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : new BufferedOutputStream(out, BUFFER_SIZE);
+        } catch (IOException e) {
+            // CREATE_NEW guarantees the file is the one just created here
+            channel.close();
+            Files.deleteIfExists(target);
+            throw e;
+        }
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    /** Set the pivot columns and, for CSV, write the header row. Must be called before {@link #write}. */
+    public void writeHeader(List<String> fieldNames) throws IOException {
+        this.fieldNames = List.copyOf(fieldNames);
+        if (format != ExportFormat.CSV) return;
+
+        StringBuilder sb = new StringBuilder("match_id,game_name,winner,player_count,timestamp,player_name,player_uuid");
+        for (String field : this.fieldNames) {
+            sb.append(',').append(csv(field));
+        }
+        writer.write(sb.append('\n').toString());
+    }
+
+    public void write(GameStatistic statistic) throws IOException {
+        if (format == ExportFormat.CSV) {
+            writeCsv(statistic);
+        } else {
+            writeNdjson(statistic);
+        }
+    }
+
+    // ----------------------------------------------------------------
+    //  CSV — one row per player, stat fields pivoted into columns
+    // ----------------------------------------------------------------
+
+    private void writeCsv(GameStatistic statistic) throws IOException {
+        String matchColumns = csv(statistic.getMatchId()) + ',' + csv(statistic.getGameName()) + ','
+                + csv(statistic.getWinner()) + ',' + statistic.getPlayerCount() + ',' + statistic.getTimestamp();
+
+        List<PlayerMatchStatistic> players = statistic.getPlayerStatistics();
+        if (players.isEmpty()) {
+            writer.write(matchColumns + ",," + ",".repeat(fieldNames.size()) + '\n');
+            return;
+        }
+        for (PlayerMatchStatistic p : players) {
+            StringBuilder sb = new StringBuilder(matchColumns)
+                    .append(',').append(csv(p.getPlayerName()))
+                    .append(',').append(csv(p.getPlayerUUID()));
+            Map<String, Integer> stats = p.getStats();
+            for (String field : fieldNames) {
+                sb.append(',');
+                Integer value = stats.get(field);
+                if (value != null) sb.append(value);
+            }
+            writer.write(sb.append('\n').toString());
+        }
+    }
+
+    static String csv(String value) {
+        if (value == null) return "";
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    // ----------------------------------------------------------------
+    //  NDJSON — one match document per line
+    // ----------------------------------------------------------------
+
+    private void writeNdjson(GameStatistic statistic) throws IOException {
+        StringBuilder sb = new StringBuilder(256)
+                .append("{\"match_id\":").append(json(statistic.getMatchId()))
+                .append(",\"game_name\":").append(json(statistic.getGameName()))
+                .append(",\"winner\":").append(json(statistic.getWinner()))
+                .append(",\"player_count\":").append(statistic.getPlayerCount())
+                .append(",\"timestamp\":").append(statistic.getTimestamp())
+                .append(",\"players\":[");
+        boolean firstPlayer = true;
+        for (PlayerMatchStatistic p : statistic.getPlayerStatistics()) {
+            if (!firstPlayer) sb.append(',');
+            firstPlayer = false;
+            sb.append("{\"player_name\":").append(json(p.getPlayerName()))
+                    .append(",\"player_uuid\":").append(json(p.getPlayerUUID()))
+                    .append(",\"stats\":{");
+            boolean firstField = true;
+            for (Map.Entry<String, Integer> entry : p.getStats().entrySet()) {
+                if (!firstField) sb.append(',');
+                firstField = false;
+                sb.append(json(entry.getKey())).append(':').append(entry.getValue());
+            }
+            sb.append("}}");
+        }
+        writer.write(sb.append("]}\n").toString());
+    }
+
+    static String json(String value) {
+        if (value == null) return "null";
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
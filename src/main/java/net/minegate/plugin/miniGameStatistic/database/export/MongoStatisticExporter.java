@@ -0,0 +1,107 @@
+package net.minegate.plugin.miniGameStatistic.database.export;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import net.minegate.plugin.miniGameStatistic.model.GameStatistic;
+import net.minegate.plugin.miniGameStatistic.model.PlayerMatchStatistic;
+import org.bson.Document;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * MongoDB exporter over the nested {@code game_statistics} documents.
+ *
+ * <p>Documents are read through a batch cursor so only {@code fetchSize} documents are
+ * held by the driver at a time.
+ */
+public class MongoStatisticExporter implements StatisticExporter {
+
+    private final MongoClient client;
+    private final MongoCollection<Document> collection;
+    private final int fetchSize;
+
+    public MongoStatisticExporter(ConfigurationSection dbSection, int fetchSize) {
+        this.fetchSize = fetchSize;
+        this.client = MongoClients.create(buildConnectionString(dbSection));
+        this.collection = client.getDatabase(dbSection.getString("database", "minigame_stats"))
+                .getCollection("game_statistics");
+    }
+
+    static String buildConnectionString(ConfigurationSection dbSection) {
+        String host = dbSection.getString("host", "localhost");
+        int port = dbSection.getInt("port", 27017);
+        String username = dbSection.getString("username", "");
+        String password = dbSection.getString("password", "");
+        if (username.isEmpty()) {
+            return "mongodb://" + host + ":" + port;
+        }
+        return "mongodb://" + URLEncoder.encode(username, StandardCharsets.UTF_8) + ":"
+                + URLEncoder.encode(password, StandardCharsets.UTF_8) + "@" + host + ":" + port;
+    }
+
+    @Override
+    public List<String> getFieldNames() {
+        List<Document> pipeline = List.of(
+                new Document("$unwind", "$players"),
+                new Document("$project", new Document("kv", new Document("$objectToArray", "$players.stats"))),
+                new Document("$unwind", "$kv"),
+                new Document("$group", new Document("_id", "$kv.k")),
+                new Document("$sort", new Document("_id", 1))
+        );
+        List<String> names = new ArrayList<>();
+        for (Document doc : collection.aggregate(pipeline).allowDiskUse(true)) {
+            names.add(doc.getString("_id"));
+        }
+        return names;
+    }
+
+    @Override
+    public long streamMatches(MatchSink sink) throws Exception {
+        long matches = 0;
+        try (MongoCursor<Document> cursor = collection.find().batchSize(fetchSize).iterator()) {
+            while (cursor.hasNext()) {
+                sink.accept(toStatistic(cursor.next()));
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    private static GameStatistic toStatistic(Document doc) {
+        List<PlayerMatchStatistic> players = new ArrayList<>();
+        for (Document p : doc.getList("players", Document.class, List.of())) {
+            Map<String, Integer> stats = new LinkedHashMap<>();
+            Document statsDoc = p.get("stats", Document.class);
+            if (statsDoc != null) {
+                for (Map.Entry<String, Object> entry : statsDoc.entrySet()) {
+                    if (entry.getValue() instanceof Number n) {
+                        stats.put(entry.getKey(), n.intValue());
+                    }
+                }
+            }
+            players.add(new PlayerMatchStatistic(p.getString("player_name"), p.getString("player_uuid"), stats));
+        }
+        Number playerCount = doc.get("player_count", Number.class);
+        Number timestamp = doc.get("timestamp", Number.class);
+        return new GameStatistic(
+                doc.getString("match_id"),
+                doc.getString("game_name"),
+                doc.getString("winner"),
+                playerCount != null ? playerCount.intValue() : players.size(),
+                timestamp != null ? timestamp.longValue() : 0L,
+                players);
+    }
+
+    @Override
+    public void close() {
+        client.close();
+    }
+}
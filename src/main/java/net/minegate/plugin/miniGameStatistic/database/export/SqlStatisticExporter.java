@@ -0,0 +1,189 @@
+package net.minegate.plugin.miniGameStatistic.database.export;
+
+import net.minegate.plugin.miniGameStatistic.model.GameStatistic;
+import net.minegate.plugin.miniGameStatistic.model.PlayerMatchStatistic;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * PostgreSQL / MySQL / MariaDB exporter over the EAV schema.
+ *
+ * <p>A single ordered join is read through a forward-only cursor ({@code setFetchSize} with
+ * auto-commit off on PostgreSQL, {@code useCursorFetch} on MySQL/MariaDB) and the
+ * {@code player_stat_fields} rows are pivoted back into one {@link GameStatistic} per match
+ * as the cursor advances.
+ */
+public class SqlStatisticExporter implements StatisticExporter {
+
+    private static final String FIELD_NAMES_SQL =
+            "SELECT DISTINCT field_name FROM player_stat_fields ORDER BY field_name";
+
+    private static final String STREAM_SQL =
+            "SELECT g.match_id, g.game_name, g.winner, g.player_count, g.timestamp, "
+                    + "p.id, p.player_name, p.player_uuid, f.field_name, f.field_value "
+                    + "FROM game_statistics g "
+                    + "LEFT JOIN player_match_statistics p ON p.match_id = g.match_id "
+                    + "LEFT JOIN player_stat_fields f ON f.player_stat_id = p.id "
+                    + "ORDER BY g.match_id, p.id";
+
+    private final Connection connection;
+    private final int fetchSize;
+
+    public SqlStatisticExporter(ConfigurationSection dbSection, int fetchSize) throws SQLException {
+        this(DriverManager.getConnection(buildJdbcUrl(dbSection),
+                dbSection.getString("username", ""), dbSection.getString("password", "")), fetchSize);
+    }
+
+    SqlStatisticExporter(Connection connection, int fetchSize) throws SQLException {
+        this.fetchSize = fetchSize;
+        this.connection = connection;
+        try {
+            // Header (field names) and rows must come from the same snapshot, or fields first
+            // written during the export would be silently missing from the CSV columns
+            connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            // PostgreSQL only honours the fetch size inside a transaction
+            connection.setAutoCommit(false);
+            connection.setReadOnly(true);
+        } catch (SQLException e) {
+            close();
+            throw e;
+        }
+    }
+
+    static String buildJdbcUrl(ConfigurationSection dbSection) {
+        String type = dbSection.getString("type", "postgresql").toLowerCase();
+        String host = dbSection.getString("host", "localhost");
+        String database = dbSection.getString("database", "minigame_stats");
+        if ("postgresql".equals(type)) {
+            int port = dbSection.getInt("port", 5432);
+            return "jdbc:postgresql://" + host + ":" + port + "/" + database;
+        }
+        // MySQL Connector/J buffers the whole result set unless cursor fetch is enabled
+        int port = dbSection.getInt("port", 3306);
+        return "jdbc:mysql://" + host + ":" + port + "/" + database + "?useCursorFetch=true";
+    }
+
+    @Override
+    public List<String> getFieldNames() throws SQLException {
+        List<String> names = new ArrayList<>();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(FIELD_NAMES_SQL)) {
+            while (rs.next()) {
+                names.add(rs.getString(1));
+            }
+        }
+        return names;
+    }
+
+    @Override
+    public long streamMatches(MatchSink sink) throws Exception {
+        long matches = 0;
+        Exception failure = null;
+        try (Statement stmt = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setFetchSize(fetchSize);
+            try (ResultSet rs = stmt.executeQuery(STREAM_SQL)) {
+                MatchAccumulator current = null;
+                while (rs.next()) {
+                    String matchId = rs.getString(1);
+                    if (current == null || !current.matchId.equals(matchId)) {
+                        if (current != null) {
+                            sink.accept(current.build());
+                            matches++;
+                        }
+                        current = new MatchAccumulator(matchId, rs.getString(2), rs.getString(3),
+                                rs.getInt(4), rs.getLong(5));
+                    }
+
+                    int playerRowId = rs.getInt(6);
+                    if (rs.wasNull()) continue; // match without player rows
+                    if (playerRowId != current.playerRowId) {
+                        current.startPlayer(playerRowId, rs.getString(7), rs.getString(8));
+                    }
+
+                    String fieldName = rs.getString(9);
+                    if (fieldName != null) {
+                        current.stats.put(fieldName, rs.getInt(10));
+                    }
+                }
+                if (current != null) {
+                    sink.accept(current.build());
+                    matches++;
+                }
+            }
+        } catch (Exception e) {
+            failure = e;
+            throw e;
+        } finally {
+            try {
+                connection.rollback();
+            } catch (SQLException rollbackFailed) {
+                // Never let a rollback on a dropped connection hide the original cursor error.
+                // After a complete read the read-only transaction holds nothing worth failing for.
+                if (failure != null) {
+                    failure.addSuppressed(rollbackFailed);
+                }
+            }
+        }
+        return matches;
+    }
+
+    @Override
+    public void close() {
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+        }
+    }
+
+    /** Collects the joined rows of a single match while the cursor is positioned on it. */
+    private static final class MatchAccumulator {
+        private final String matchId;
+        private final String gameName;
+        private final String winner;
+        private final int playerCount;
+        private final long timestamp;
+        private final List<PlayerMatchStatistic> players = new ArrayList<>();
+
+        private int playerRowId = -1;
+        private String playerName;
+        private String playerUuid;
+        private Map<String, Integer> stats;
+
+        private MatchAccumulator(String matchId, String gameName, String winner, int playerCount, long timestamp) {
+            this.matchId = matchId;
+            this.gameName = gameName;
+            this.winner = winner;
+            this.playerCount = playerCount;
+            this.timestamp = timestamp;
+        }
+
+        private void startPlayer(int rowId, String name, String uuid) {
+            finishPlayer();
+            this.playerRowId = rowId;
+            this.playerName = name;
+            this.playerUuid = uuid;
+            this.stats = new LinkedHashMap<>();
+        }
+
+        private void finishPlayer() {
+            if (playerName != null) {
+                players.add(new PlayerMatchStatistic(playerName, playerUuid, stats));
+                playerName = null;
+            }
+        }
+
+        private GameStatistic build() {
+            finishPlayer();
+            return new GameStatistic(matchId, gameName, winner, playerCount, timestamp, players);
+        }
+    }
+}
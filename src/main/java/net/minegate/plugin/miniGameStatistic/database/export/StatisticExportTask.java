@@ -0,0 +1,95 @@
+package net.minegate.plugin.miniGameStatistic.database.export;
+
+import net.minegate.plugin.miniGameStatistic.database.LocalRepository;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+/**
+ * Full dump of all stored matches to a single file.
+ *
+ * <p>Blocking — run it off the main thread. Memory use is bounded by one match plus the
+ * driver fetch buffer and the writer buffer, independent of how many matches are stored.
+ *
+ * <p>Example:
+ * <pre>
+ *   long exported = new StatisticExportTask(dbSection, ExportFormat.CSV, target, true, 1000, 10000)
+ *           .run(count -&gt; logger.info("Exported " + count + " matches"));
+ * </pre>
+ */
+public class StatisticExportTask {
+
+    /** Opens the exporter when the task runs, so connections only live for the export. */
+    @FunctionalInterface
+    private interface ExporterFactory {
+        StatisticExporter open() throws Exception;
+    }
+
+    private final ExporterFactory exporterFactory;
+    private final ExportFormat format;
+    private final Path target;
+    private final boolean gzip;
+    private final int progressInterval;
+
+    /** Export from the external database configured in {@code dbSection}. */
+    public StatisticExportTask(ConfigurationSection dbSection, ExportFormat format, Path target,
+                               boolean gzip, int fetchSize, int progressInterval) {
+        this(() -> StatisticExporter.create(dbSection, Math.max(1, fetchSize)), format, target, gzip, progressInterval);
+    }
+
+    /** Export from the embedded local store. */
+    public StatisticExportTask(LocalRepository localRepository, ExportFormat format, Path target,
+                               boolean gzip, int progressInterval) {
+        this(() -> new LocalStatisticExporter(localRepository), format, target, gzip, progressInterval);
+    }
+
+    private StatisticExportTask(ExporterFactory exporterFactory, ExportFormat format, Path target,
+                                boolean gzip, int progressInterval) {
+        this.exporterFactory = exporterFactory;
+        this.format = format;
+        this.target = target;
+        this.gzip = gzip;
+        this.progressInterval = Math.max(1, progressInterval);
+    }
+
+    /**
+     * Run the export.
+     *
+     * @param progress called with the running match count every {@code progressInterval} matches
+     * @return the total number of matches written
+     */
+    public long run(LongConsumer progress) throws Exception {
+        Path parent = target.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        long[] written = {0};
+        boolean created = false;
+        try (StatisticExporter exporter = exporterFactory.open()) {
+            List<String> fieldNames = exporter.getFieldNames();
+            try (MatchExportWriter writer = new MatchExportWriter(target, format, gzip)) {
+                // From here on the file is ours; never delete a pre-existing target
+                created = true;
+                writer.writeHeader(fieldNames);
+                exporter.streamMatches(statistic -> {
+                    writer.write(statistic);
+                    if (++written[0] % progressInterval == 0) {
+                        progress.accept(written[0]);
+                    }
+                });
+            }
+        } catch (Exception e) {
+            if (created) {
+                Files.deleteIfExists(target);
+            }
+            throw e;
+        }
+        return written[0];
+    }
+
+    public Path getTarget() { return target; }
+}
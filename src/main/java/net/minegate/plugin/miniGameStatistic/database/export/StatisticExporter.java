@@ -0,0 +1,54 @@
+package net.minegate.plugin.miniGameStatistic.database.export;
+
+import net.minegate.plugin.miniGameStatistic.model.GameStatistic;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Streams every stored match out of the database one {@link GameStatistic} at a time.
+ *
+ * <p>Implementations read through a server-side cursor on their own dedicated connection,
+ * so memory use is bounded by a single match regardless of table size and the regular
+ * repository connection used for saving new matches is never blocked.
+ */
+public interface StatisticExporter extends AutoCloseable {
+
+    /** Receives streamed matches; may throw to abort the export. */
+    @FunctionalInterface
+    interface MatchSink {
+        void accept(GameStatistic statistic) throws IOException;
+    }
+
+    /** All distinct stat field names present in the store, sorted. Used as pivot columns. */
+    List<String> getFieldNames() throws Exception;
+
+    /**
+     * Stream every stored match into the sink.
+     *
+     * @return the number of matches streamed
+     */
+    long streamMatches(MatchSink sink) throws Exception;
+
+    @Override
+    void close();
+
+    /**
+     * Create an exporter for the configured database type.
+     *
+     * @param dbSection the {@code database} config section
+     * @param fetchSize rows (SQL) or documents (MongoDB) fetched per round trip
+     */
+    static StatisticExporter create(ConfigurationSection dbSection, int fetchSize) throws Exception {
+        if (dbSection == null) {
+            throw new IllegalArgumentException("Missing 'database' config section");
+        }
+        String type = dbSection.getString("type", "postgresql").toLowerCase();
+        return switch (type) {
+            case "postgresql", "mysql", "mariadb" -> new SqlStatisticExporter(dbSection, fetchSize);
+            case "mongodb" -> new MongoStatisticExporter(dbSection, fetchSize);
+            default -> throw new IllegalArgumentException("Unsupported database type: " + type);
+        };
+    }
+}
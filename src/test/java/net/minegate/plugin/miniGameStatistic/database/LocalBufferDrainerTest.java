@@ -0,0 +1,95 @@
+package net.minegate.plugin.miniGameStatistic.database;
+
+import net.minegate.plugin.miniGameStatistic.model.GameStatistic;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalBufferDrainerTest {
+    private static final Logger LOGGER = Logger.getLogger("LocalBufferDrainerTest");
+
+    @TempDir
+    Path dir;
+
+    private static GameStatistic match(String matchId) {
+        return new GameStatistic(matchId, "SkyWars-1", "Steve", 0, 1000L, List.of());
+    }
+
+    private LocalRepository bufferOf(String... matchIds) throws IOException {
+        LocalRepository repo = new LocalRepository(dir, 64 * 1024, LOGGER);
+        for (String id : matchIds) {
+            repo.bufferStatistic(match(id));
+        }
+        return repo;
+    }
+
+    @Test
+    void duplicateKeyCountsAsDrained() throws IOException {
+        try (LocalRepository repo = bufferOf("m1", "m2")) {
+            List<String> saved = new ArrayList<>();
+            LocalBufferDrainer drainer = new LocalBufferDrainer(repo, s -> {
+                if (s.getMatchId().equals("m1")) {
+                    throw new RuntimeException(new SQLException("duplicate key", "23505"));
+                }
+                saved.add(s.getMatchId());
+            }, 10, 3, LOGGER);
+
+            assertEquals(2, drainer.drainBatch());
+            assertEquals(List.of("m2"), saved);
+            assertEquals(0, repo.getPendingCount());
+        }
+    }
+
+    @Test
+    void mysqlDuplicateEntryCountsAsDrained() {
+        assertTrue(LocalBufferDrainer.isDuplicateKey(new SQLIntegrityConstraintViolationException("dup", "23000", 1062)));
+        assertFalse(LocalBufferDrainer.isDuplicateKey(new SQLIntegrityConstraintViolationException("null", "23000", 1048)));
+    }
+
+    @Test
+    void failingMatchDoesNotBlockLaterOnesAndIsParked() throws IOException {
+        try (LocalRepository repo = bufferOf("bad", "m1", "m2")) {
+            LocalBufferDrainer drainer = new LocalBufferDrainer(repo, s -> {
+                if (s.getMatchId().equals("bad")) throw new IllegalStateException("rejected");
+            }, 10, 2, LOGGER);
+
+            assertEquals(2, drainer.drainBatch());
+            assertEquals(1, repo.getPendingCount());
+            assertEquals(0, repo.getParkedCount());
+
+            assertEquals(0, drainer.drainBatch());
+            assertEquals(1, repo.getParkedCount());
+            assertTrue(repo.getPendingMatches(10).isEmpty());
+        }
+    }
+
+    @Test
+    void connectionFailureStopsBatchWithoutCountingAttempts() throws IOException {
+        try (LocalRepository repo = bufferOf("m1", "m2", "m3")) {
+            Set<String> attempted = new HashSet<>();
+            LocalBufferDrainer drainer = new LocalBufferDrainer(repo, s -> {
+                attempted.add(s.getMatchId());
+                throw new SQLTransientConnectionException("connection refused", "08001");
+            }, 10, 1, LOGGER);
+
+            for (int i = 0; i < 3; i++) {
+                assertEquals(0, drainer.drainBatch());
+            }
+            assertEquals(Set.of("m1"), attempted);
+            assertEquals(3, repo.getPendingCount());
+            assertEquals(0, repo.getParkedCount());
+        }
+    }
+}
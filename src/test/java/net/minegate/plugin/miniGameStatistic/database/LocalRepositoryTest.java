@@ -0,0 +1,224 @@
+package net.minegate.plugin.miniGameStatistic.database;
+
+import net.minegate.plugin.miniGameStatistic.model.GameStatistic;
+import net.minegate.plugin.miniGameStatistic.model.PlayerMatchStatistic;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalRepositoryTest {
+    private static final Logger LOGGER = Logger.getLogger("LocalRepositoryTest");
+    private static final long MIN_SEGMENT_SIZE = 64 * 1024;
+
+    @TempDir
+    Path dir;
+
+    private static GameStatistic match(String matchId, String playerUuid) {
+        return new GameStatistic(matchId, "SkyWars-1", "Steve", 1, 1000L,
+                List.of(new PlayerMatchStatistic("Steve", playerUuid, Map.of("kills", 5, "deaths", 2))));
+    }
+
+    private LocalRepository open() throws IOException {
+        return new LocalRepository(dir, MIN_SEGMENT_SIZE, LOGGER);
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(f -> f.getFileName().toString().startsWith("segment-")).sorted().toList();
+        }
+    }
+
+    @Test
+    void savedMatchesSurviveReopen() throws IOException {
+        try (LocalRepository repo = open()) {
+            repo.saveStatistic(match("m1", "u1"));
+            repo.saveStatistic(match("m2", "u1"));
+            repo.saveStatistic(match("m3", "u2"));
+        }
+
+        try (LocalRepository repo = open()) {
+            assertEquals(3, repo.getMatchCount());
+            assertEquals(0, repo.getPendingCount());
+            GameStatistic m2 = repo.findByMatchId("m2");
+            assertEquals("SkyWars-1", m2.getGameName());
+            assertEquals(5, m2.getPlayerStatistics().get(0).getStats().get("kills"));
+            assertEquals(2, repo.findByPlayer("u1").size());
+            assertEquals(List.of("deaths", "kills"), repo.getFieldNames());
+        }
+    }
+
+    @Test
+    void duplicateMatchIdIsIgnored() throws IOException {
+        try (LocalRepository repo = open()) {
+            repo.saveStatistic(match("m1", "u1"));
+            repo.bufferStatistic(match("m1", "u1"));
+            assertEquals(1, repo.getMatchCount());
+            assertEquals(0, repo.getPendingCount());
+        }
+    }
+
+    @Test
+    void tornTailIsTruncatedOnReopen() throws IOException {
+        try (LocalRepository repo = open()) {
+            repo.saveStatistic(match("m1", "u1"));
+            repo.saveStatistic(match("m2", "u1"));
+        }
+        Path segment = segmentFiles().get(0);
+        long intactSize = Files.size(segment);
+        // Header claiming a 100-byte payload followed by only 3 bytes, as left by a crash mid-write
+        Files.write(segment, new byte[]{0, 0, 0, 100, 1, 2, 3, 4, 9, 9, 9}, StandardOpenOption.APPEND);
+
+        try (LocalRepository repo = open()) {
+            assertEquals(2, repo.getMatchCount());
+            assertEquals(intactSize, Files.size(segment));
+            repo.saveStatistic(match("m3", "u1"));
+        }
+
+        try (LocalRepository repo = open()) {
+            assertEquals(3, repo.getMatchCount());
+            assertNotNull(repo.findByMatchId("m3"));
+        }
+    }
+
+    @Test
+    void corruptChecksumDropsRecordAndEverythingAfterIt() throws IOException {
+        long secondRecordOffset;
+        try (LocalRepository repo = open()) {
+            repo.saveStatistic(match("m1", "u1"));
+            secondRecordOffset = Files.size(segmentFiles().get(0));
+            repo.saveStatistic(match("m2", "u1"));
+            repo.saveStatistic(match("m3", "u1"));
+        }
+        try (RandomAccessFile file = new RandomAccessFile(segmentFiles().get(0).toFile(), "rw")) {
+            long payloadByte = secondRecordOffset + 8 + 2;
+            file.seek(payloadByte);
+            int b = file.read();
+            file.seek(payloadByte);
+            file.write(b ^ 0xFF);
+        }
+
+        try (LocalRepository repo = open()) {
+            assertEquals(1, repo.getMatchCount());
+            assertNotNull(repo.findByMatchId("m1"));
+            assertNull(repo.findByMatchId("m2"));
+            assertEquals(secondRecordOffset, Files.size(segmentFiles().get(0)));
+        }
+    }
+
+    @Test
+    void drainMarkersAreReplayed() throws IOException {
+        try (LocalRepository repo = open()) {
+            repo.bufferStatistic(match("m1", "u1"));
+            repo.bufferStatistic(match("m2", "u1"));
+            repo.bufferStatistic(match("m3", "u1"));
+            repo.markDrained(List.of("m1", "m3", "unknown"));
+            assertEquals(1, repo.getPendingCount());
+        }
+
+        try (LocalRepository repo = open()) {
+            assertEquals(1, repo.getPendingCount());
+            assertEquals("m2", repo.getPendingMatches(10).get(0).getMatchId());
+            assertEquals(List.of("m2"), repo.getMatchIds());
+        }
+    }
+
+    @Test
+    void parkedMatchesAreSkippedUntilReopen() throws IOException {
+        try (LocalRepository repo = open()) {
+            repo.bufferStatistic(match("m1", "u1"));
+            repo.bufferStatistic(match("m2", "u1"));
+            repo.park("m1");
+            assertEquals(List.of("m2"), repo.getPendingMatches(10).stream().map(GameStatistic::getMatchId).toList());
+            assertEquals(2, repo.getPendingCount());
+        }
+
+        try (LocalRepository repo = open()) {
+            assertEquals(0, repo.getParkedCount());
+            assertEquals(2, repo.getPendingMatches(10).size());
+        }
+    }
+
+    @Test
+    void fullyDrainedSegmentsAreDeleted() throws IOException {
+        List<String> ids = new ArrayList<>();
+        try (LocalRepository repo = open()) {
+            for (int i = 0; i < 3000; i++) {
+                repo.bufferStatistic(match("m" + i, "u" + (i % 10)));
+                ids.add("m" + i);
+            }
+            int segmentsBefore = segmentFiles().size();
+            assertTrue(segmentsBefore > 2, "expected the log to roll over several segments");
+
+            repo.markDrained(ids.subList(0, ids.size() - 1));
+            assertTrue(segmentFiles().size() < segmentsBefore);
+            assertNull(repo.findByMatchId("m0"));
+            assertTrue(repo.findByPlayer("u0").stream().noneMatch(m -> m.getMatchId().equals("m0")));
+            assertEquals(1, repo.getPendingCount());
+        }
+
+        try (LocalRepository repo = open()) {
+            assertEquals(1, repo.getPendingCount());
+            assertEquals("m2999", repo.getPendingMatches(10).get(0).getMatchId());
+        }
+    }
+
+    @Test
+    void storedMatchKeepsLaterDrainedSegments() throws IOException {
+        List<String> ids = new ArrayList<>();
+        try (LocalRepository repo = open()) {
+            repo.saveStatistic(match("stored", "u1"));
+            for (int i = 0; i < 3000; i++) {
+                repo.bufferStatistic(match("m" + i, "u1"));
+                ids.add("m" + i);
+            }
+            int segmentsBefore = segmentFiles().size();
+
+            // Segments are only deleted as a prefix; the stored match pins the oldest one
+            repo.markDrained(ids);
+            assertEquals(segmentsBefore, segmentFiles().size());
+        }
+
+        try (LocalRepository repo = open()) {
+            assertEquals(0, repo.getPendingCount());
+            assertEquals(List.of("stored"), repo.getMatchIds());
+        }
+    }
+
+    @Test
+    void strayFilesAreIgnored() throws IOException {
+        Files.writeString(dir.resolve("segment-backup.log"), "not a segment");
+        Files.writeString(dir.resolve("notes.txt"), "hello");
+
+        try (LocalRepository repo = open()) {
+            repo.saveStatistic(match("m1", "u1"));
+        }
+        try (LocalRepository repo = open()) {
+            assertEquals(1, repo.getMatchCount());
+        }
+        assertTrue(Files.exists(dir.resolve("segment-backup.log")));
+    }
+
+    @Test
+    void closedRepositoryRejectsCallsWithIOException() throws IOException {
+        LocalRepository repo = open();
+        repo.saveStatistic(match("m1", "u1"));
+        repo.close();
+
+        assertThrows(IOException.class, () -> repo.bufferStatistic(match("m2", "u1")));
+        assertThrows(IOException.class, () -> repo.markDrained(List.of("m1")));
+        assertThrows(IOException.class, () -> repo.findByMatchId("m1"));
+        assertEquals(1, segmentFiles().size());
+    }
+}
@@ -0,0 +1,87 @@
+package net.minegate.plugin.miniGameStatistic.database.export;
+
+import net.minegate.plugin.miniGameStatistic.model.GameStatistic;
+import net.minegate.plugin.miniGameStatistic.model.PlayerMatchStatistic;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatchExportWriterTest {
+
+    @TempDir
+    Path dir;
+
+    private static GameStatistic sampleMatch() {
+        Map<String, Integer> steve = new LinkedHashMap<>();
+        steve.put("kills", 5);
+        steve.put("deaths", 2);
+        return new GameStatistic("m1", "SkyWars, \"East\"", "Steve", 2, 1000L, List.of(
+                new PlayerMatchStatistic("Steve", "u1", steve),
+                new PlayerMatchStatistic("Alex", "u2", Map.of("deaths", 4))));
+    }
+
+    @Test
+    void csvQuotesOnlyWhenNeeded() {
+        assertEquals("plain", MatchExportWriter.csv("plain"));
+        assertEquals("\"a,b\"", MatchExportWriter.csv("a,b"));
+        assertEquals("\"say \"\"hi\"\"\"", MatchExportWriter.csv("say \"hi\""));
+        assertEquals("\"line\nbreak\"", MatchExportWriter.csv("line\nbreak"));
+        assertEquals("\"cr\rhere\"", MatchExportWriter.csv("cr\rhere"));
+        assertEquals("", MatchExportWriter.csv(null));
+    }
+
+    @Test
+    void jsonEscapesSpecialAndControlCharacters() {
+        assertEquals("\"plain\"", MatchExportWriter.json("plain"));
+        assertEquals("\"q\\\"b\\\\\"", MatchExportWriter.json("q\"b\\"));
+        assertEquals("\"a\\nb\\rc\\td\"", MatchExportWriter.json("a\nb\rc\td"));
+        assertEquals("\"\\u0001\"", MatchExportWriter.json("\u0001"));
+        assertEquals("null", MatchExportWriter.json(null));
+    }
+
+    @Test
+    void csvPivotsFieldsIntoColumns() throws IOException {
+        Path target = dir.resolve("out.csv");
+        try (MatchExportWriter writer = new MatchExportWriter(target, ExportFormat.CSV, false)) {
+            writer.writeHeader(List.of("deaths", "kills"));
+            writer.write(sampleMatch());
+            writer.write(new GameStatistic("m2", "BedWars", "Alex", 0, 2000L, List.of()));
+        }
+
+        assertEquals(List.of(
+                "match_id,game_name,winner,player_count,timestamp,player_name,player_uuid,deaths,kills",
+                "m1,\"SkyWars, \"\"East\"\"\",Steve,2,1000,Steve,u1,2,5",
+                "m1,\"SkyWars, \"\"East\"\"\",Steve,2,1000,Alex,u2,4,",
+                "m2,BedWars,Alex,0,2000,,,,"
+        ), Files.readAllLines(target));
+    }
+
+    @Test
+    void ndjsonIsGzipCompressedOneMatchPerLine() throws IOException {
+        Path target = dir.resolve("out.ndjson.gz");
+        try (MatchExportWriter writer = new MatchExportWriter(target, ExportFormat.NDJSON, true)) {
+            writer.writeHeader(List.of("deaths", "kills"));
+            writer.write(sampleMatch());
+        }
+
+        String content;
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(target))) {
+            content = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        assertEquals("{\"match_id\":\"m1\",\"game_name\":\"SkyWars, \\\"East\\\"\",\"winner\":\"Steve\","
+                + "\"player_count\":2,\"timestamp\":1000,\"players\":["
+                + "{\"player_name\":\"Steve\",\"player_uuid\":\"u1\",\"stats\":{\"kills\":5,\"deaths\":2}},"
+                + "{\"player_name\":\"Alex\",\"player_uuid\":\"u2\",\"stats\":{\"deaths\":4}}]}\n", content);
+    }
+}
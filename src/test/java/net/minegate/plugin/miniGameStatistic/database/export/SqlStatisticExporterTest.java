@@ -0,0 +1,167 @@
+package net.minegate.plugin.miniGameStatistic.database.export;
+
+import net.minegate.plugin.miniGameStatistic.model.GameStatistic;
+import net.minegate.plugin.miniGameStatistic.model.PlayerMatchStatistic;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlStatisticExporterTest {
+
+    /** Minimal JDBC fake serving the rows of the stream query; {@code null} cells are SQL NULL. */
+    private static final class FakeDatabase {
+        private final List<Object[]> rows;
+        private final List<String> calls = new ArrayList<>();
+        private SQLException rollbackFailure;
+
+        private FakeDatabase(Object[]... rows) {
+            this.rows = List.of(rows);
+        }
+
+        private Connection connection() {
+            return proxy(Connection.class, (method, args) -> {
+                calls.add(method);
+                return switch (method) {
+                    case "createStatement" -> statement();
+                    case "rollback" -> {
+                        if (rollbackFailure != null) throw rollbackFailure;
+                        yield null;
+                    }
+                    default -> null;
+                };
+            });
+        }
+
+        private Statement statement() {
+            return proxy(Statement.class, (method, args) -> {
+                if (method.equals("setFetchSize")) calls.add("setFetchSize:" + args[0]);
+                return method.equals("executeQuery") ? resultSet() : null;
+            });
+        }
+
+        private ResultSet resultSet() {
+            int[] cursor = {-1};
+            Object[] lastRead = {null};
+            return proxy(ResultSet.class, (method, args) -> switch (method) {
+                case "next" -> ++cursor[0] < rows.size();
+                case "wasNull" -> lastRead[0] == null;
+                case "getString", "getInt", "getLong" -> {
+                    Object value = rows.get(cursor[0])[(Integer) args[0] - 1];
+                    lastRead[0] = value;
+                    if (method.equals("getString")) yield value;
+                    long number = value == null ? 0 : ((Number) value).longValue();
+                    yield method.equals("getInt") ? (Object) (int) number : (Object) number;
+                }
+                default -> null;
+            });
+        }
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object handle(String method, Object[] args) throws Exception;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (p, method, args) -> handler.handle(method.getName(), args));
+    }
+
+    private static Object[] row(String matchId, Integer playerRowId, String playerName, String field, Integer value) {
+        return new Object[]{matchId, "SkyWars-1", "Steve", 2, 1000L,
+                playerRowId, playerName, playerName == null ? null : playerName.toLowerCase(), field, value};
+    }
+
+    private static List<GameStatistic> export(FakeDatabase db) throws Exception {
+        List<GameStatistic> matches = new ArrayList<>();
+        try (SqlStatisticExporter exporter = new SqlStatisticExporter(db.connection(), 500)) {
+            long streamed = exporter.streamMatches(matches::add);
+            assertEquals(matches.size(), streamed);
+        }
+        return matches;
+    }
+
+    @Test
+    void pivotsFieldRowsIntoPlayersAndMatches() throws Exception {
+        FakeDatabase db = new FakeDatabase(
+                row("m1", 1, "Steve", "kills", 5),
+                row("m1", 1, "Steve", "deaths", 2),
+                row("m1", 2, "Alex", "kills", 1),
+                row("m2", 3, "Steve", "kills", 7));
+
+        List<GameStatistic> matches = export(db);
+
+        assertEquals(List.of("m1", "m2"), matches.stream().map(GameStatistic::getMatchId).toList());
+        List<PlayerMatchStatistic> m1 = matches.get(0).getPlayerStatistics();
+        assertEquals(List.of("Steve", "Alex"), m1.stream().map(PlayerMatchStatistic::getPlayerName).toList());
+        assertEquals(Map.of("kills", 5, "deaths", 2), m1.get(0).getStats());
+        assertEquals(Map.of("kills", 1), m1.get(1).getStats());
+        assertEquals("alex", m1.get(1).getPlayerUUID());
+        assertEquals(Map.of("kills", 7), matches.get(1).getPlayerStatistics().get(0).getStats());
+        assertEquals(1000L, matches.get(1).getTimestamp());
+    }
+
+    @Test
+    void matchWithoutPlayersAndPlayerWithoutFieldsSurvivePivot() throws Exception {
+        FakeDatabase db = new FakeDatabase(
+                row("m1", null, null, null, null),
+                row("m2", 1, "Steve", null, null),
+                row("m2", 2, "Alex", "kills", 3));
+
+        List<GameStatistic> matches = export(db);
+
+        assertEquals(2, matches.size());
+        assertTrue(matches.get(0).getPlayerStatistics().isEmpty());
+        List<PlayerMatchStatistic> m2 = matches.get(1).getPlayerStatistics();
+        assertEquals(2, m2.size());
+        assertTrue(m2.get(0).getStats().isEmpty());
+        assertEquals(Map.of("kills", 3), m2.get(1).getStats());
+    }
+
+    @Test
+    void readsThroughCursorInsideRepeatableReadTransaction() throws Exception {
+        FakeDatabase db = new FakeDatabase(row("m1", 1, "Steve", "kills", 5));
+
+        export(db);
+
+        assertTrue(db.calls.contains("setTransactionIsolation"));
+        assertTrue(db.calls.contains("setAutoCommit"));
+        assertTrue(db.calls.contains("setFetchSize:500"));
+        assertTrue(db.calls.contains("rollback"));
+        assertEquals("close", db.calls.get(db.calls.size() - 1));
+    }
+
+    @Test
+    void rollbackFailureDoesNotMaskCursorError() throws Exception {
+        FakeDatabase db = new FakeDatabase(row("m1", 1, "Steve", "kills", 5));
+        db.rollbackFailure = new SQLException("connection lost", "08006");
+        IOException diskFull = new IOException("disk full");
+
+        try (SqlStatisticExporter exporter = new SqlStatisticExporter(db.connection(), 500)) {
+            IOException thrown = assertThrows(IOException.class, () -> exporter.streamMatches(s -> {
+                throw diskFull;
+            }));
+            assertSame(diskFull, thrown);
+            assertSame(db.rollbackFailure, thrown.getSuppressed()[0]);
+        }
+    }
+
+    @Test
+    void rollbackFailureAfterCompleteReadIsIgnored() throws Exception {
+        FakeDatabase db = new FakeDatabase(row("m1", 1, "Steve", "kills", 5));
+        db.rollbackFailure = new SQLException("connection lost", "08006");
+
+        assertEquals(1, export(db).size());
+    }
+}
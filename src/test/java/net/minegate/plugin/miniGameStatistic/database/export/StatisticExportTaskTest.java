@@ -0,0 +1,96 @@
+package net.minegate.plugin.miniGameStatistic.database.export;
+
+import net.minegate.plugin.miniGameStatistic.database.LocalRepository;
+import net.minegate.plugin.miniGameStatistic.model.GameStatistic;
+import net.minegate.plugin.miniGameStatistic.model.PlayerMatchStatistic;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatisticExportTaskTest {
+    private static final Logger LOGGER = Logger.getLogger("StatisticExportTaskTest");
+
+    @TempDir
+    Path dir;
+
+    private static GameStatistic match(String matchId, Map<String, Integer> stats) {
+        return new GameStatistic(matchId, "SkyWars-1", "Steve", 1, 1000L,
+                List.of(new PlayerMatchStatistic("Steve", "u1", stats)));
+    }
+
+    private LocalRepository open() throws IOException {
+        return new LocalRepository(dir.resolve("local"), 64 * 1024, LOGGER);
+    }
+
+    @Test
+    void exportsLocalMatchesAndReportsProgress() throws Exception {
+        Path target = dir.resolve("exports").resolve("matches.csv");
+        List<Long> progress = new ArrayList<>();
+        try (LocalRepository repo = open()) {
+            repo.saveStatistic(match("m1", Map.of("kills", 5)));
+            repo.saveStatistic(match("m2", Map.of("deaths", 1)));
+            repo.saveStatistic(match("m3", Map.of("kills", 2)));
+
+            long written = new StatisticExportTask(repo, ExportFormat.CSV, target, false, 2).run(progress::add);
+            assertEquals(3, written);
+        }
+
+        assertEquals(List.of(2L), progress);
+        List<String> lines = Files.readAllLines(target);
+        assertEquals("match_id,game_name,winner,player_count,timestamp,player_name,player_uuid,deaths,kills", lines.get(0));
+        assertEquals("m2,SkyWars-1,Steve,1,1000,Steve,u1,1,", lines.get(2));
+        assertEquals(4, lines.size());
+    }
+
+    @Test
+    void existingTargetIsLeftUntouched() throws Exception {
+        Path target = dir.resolve("matches.csv");
+        Files.writeString(target, "previous export");
+        try (LocalRepository repo = open()) {
+            repo.saveStatistic(match("m1", Map.of("kills", 5)));
+
+            StatisticExportTask task = new StatisticExportTask(repo, ExportFormat.CSV, target, false, 10);
+            assertThrows(FileAlreadyExistsException.class, () -> task.run(count -> {}));
+        }
+
+        assertEquals("previous export", Files.readString(target));
+    }
+
+    @Test
+    void partialFileIsDeletedWhenExportFails() throws Exception {
+        Path target = dir.resolve("matches.ndjson");
+        LocalRepository repo = open();
+        repo.saveStatistic(match("m1", Map.of("kills", 5)));
+        // Reading matches back from a closed repository fails after the file was created
+        repo.close();
+
+        StatisticExportTask task = new StatisticExportTask(repo, ExportFormat.NDJSON, target, false, 10);
+        assertThrows(IOException.class, () -> task.run(count -> {}));
+        assertFalse(Files.exists(target));
+    }
+
+    @Test
+    void localExportSkipsMatchesSavedAfterSnapshot() throws Exception {
+        try (LocalRepository repo = open()) {
+            repo.saveStatistic(match("m1", Map.of("kills", 5)));
+
+            LocalStatisticExporter exporter = new LocalStatisticExporter(repo);
+            assertEquals(List.of("kills"), exporter.getFieldNames());
+            repo.saveStatistic(match("m2", Map.of("assists", 3)));
+
+            List<String> streamed = new ArrayList<>();
+            assertEquals(1, exporter.streamMatches(s -> streamed.add(s.getMatchId())));
+            assertEquals(List.of("m1"), streamed);
+        }
+    }
+}